@@ -0,0 +1,397 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.*;
+import okio.BufferedSource;
+import org.json.*;
+
+/**
+ * ChatSession.java
+ * ----------------
+ * Headless customer service pipeline behind the GUI: input filtering, intent
+ * classification (Queue, Stack, HashMap, Trie, KMP) and the OpenRouter
+ * chat-completions call.
+ *
+ * The endpoint and key are read from the "openrouter.api.url" /
+ * "openrouter.api.key" system properties or the OPENROUTER_API_URL /
+ * OPENROUTER_API_KEY environment variables, so the same pipeline can be
+ * pointed at OpenRouterSimulator for load testing.
+ */
+
+public class ChatSession {
+
+    public enum MessageType {
+        USER, AI, WARNING
+    }
+
+    // Receives everything the session would show to the user. May be called
+    // from a worker thread.
+    public interface Listener {
+        void onMessage(String text, MessageType type);
+
+        void onStatus(String status);
+    }
+
+    // API Configuration
+    public static final String DEFAULT_API_URL = "https://openrouter.ai/api/v1/chat/completions";
+    private static final String DEFAULT_API_KEY = "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";
+    public static final String DEFAULT_MODEL = "qwen/qwen3-235b-a22b:free";
+
+    // One client for every session so connections and threads are pooled
+    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder()
+            .readTimeout(60, TimeUnit.SECONDS)
+            .build();
+
+    // DSA structures
+    private final Queue<String> messageQueue = new LinkedList<>();
+    private final Stack<String> undoStack = new Stack<>();
+    private final HashMap<String, String> intentMap = new HashMap<>();
+    private final TrieNode root = new TrieNode();
+
+    private final String apiUrl;
+    private final String apiKey;
+    private final boolean stream;
+    private final Listener listener;
+    private volatile String currentModel = DEFAULT_MODEL;
+    private volatile boolean logErrors = true;
+
+    public ChatSession(Listener listener) {
+        this(resolveApiUrl(), resolveApiKey(), Boolean.getBoolean("openrouter.stream"), listener);
+    }
+
+    public ChatSession(String apiUrl, String apiKey, boolean stream, Listener listener) {
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.stream = stream;
+        this.listener = listener;
+        setupIntents();
+        buildTrie();
+    }
+
+    public static String resolveApiUrl() {
+        return resolveSetting("openrouter.api.url", "OPENROUTER_API_URL", DEFAULT_API_URL);
+    }
+
+    public static String resolveApiKey() {
+        return resolveSetting("openrouter.api.key", "OPENROUTER_API_KEY", DEFAULT_API_KEY);
+    }
+
+    private static String resolveSetting(String property, String envVar, String fallback) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank())
+            value = System.getenv(envVar);
+        return value == null || value.isBlank() ? fallback : value.trim();
+    }
+
+    public String getCurrentModel() {
+        return currentModel;
+    }
+
+    public void setCurrentModel(String model) {
+        currentModel = model;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    // Stack traces are useful in the GUI but drown out a load test
+    public void setLogErrors(boolean logErrors) {
+        this.logErrors = logErrors;
+    }
+
+    /**
+     * Runs one user message through the pipeline. The returned future completes
+     * with the reply shown to the user (null for empty input) or exceptionally
+     * if the API call fails.
+     */
+    public CompletableFuture<String> handleSend(String userInput) {
+        userInput = userInput.trim();
+        if (userInput.isEmpty())
+            return CompletableFuture.completedFuture(null);
+
+        listener.onMessage("You: " + userInput, MessageType.USER);
+        messageQueue.add(userInput);
+        undoStack.push(userInput);
+
+        // Update status
+        listener.onStatus("Processing your customer service request using " + currentModel + "...");
+
+        if (isIrrelevant(userInput)) {
+            String rejectionMsg = "Customer Service Focus\n\n" +
+                    "I specialize exclusively in company-related customer support. " +
+                    "I cannot answer general questions, provide information about other AI systems, " +
+                    "or discuss topics outside our business services.\n\n" +
+                    "Please ask about our company, products, services, or customer support " +
+                    "and I'll be happy to assist you!";
+
+            listener.onMessage(rejectionMsg, MessageType.WARNING);
+            listener.onStatus("Question redirected to customer service topics");
+            return CompletableFuture.completedFuture(rejectionMsg);
+        }
+
+        String intent = classifyIntent(userInput);
+        return getAIResponse(userInput, intent);
+    }
+
+    // Returns the undone message, or null if there is nothing to undo
+    public String undo() {
+        return undoStack.isEmpty() ? null : undoStack.pop();
+    }
+
+    // Enhanced DSA logic implementations
+    private void setupIntents() {
+        intentMap.put("refund", "Refund request");
+        intentMap.put("payment", "Payment issue");
+        intentMap.put("order", "Order tracking");
+        intentMap.put("cancel", "Cancellation");
+        intentMap.put("login", "Account issue");
+        intentMap.put("price", "Pricing inquiry");
+        intentMap.put("help", "General support");
+        intentMap.put("service", "Service information");
+        intentMap.put("company", "Company details");
+        intentMap.put("product", "Product information");
+        intentMap.put("shipping", "Shipping inquiry");
+        intentMap.put("return", "Return policy");
+        intentMap.put("warranty", "Warranty information");
+        intentMap.put("technical", "Technical support");
+        intentMap.put("billing", "Billing inquiry");
+        intentMap.put("account", "Account management");
+        intentMap.put("support", "Customer support");
+        intentMap.put("delivery", "Delivery status");
+        intentMap.put("policy", "Company policy");
+        intentMap.put("track", "Order tracking");
+        intentMap.put("complaint", "Customer complaint");
+    }
+
+    private void buildTrie() {
+        for (String word : intentMap.keySet()) {
+            insertTrie(word);
+        }
+    }
+
+    private void insertTrie(String word) {
+        TrieNode node = root;
+        for (char c : word.toCharArray()) {
+            node.children.putIfAbsent(c, new TrieNode());
+            node = node.children.get(c);
+        }
+        node.isEnd = true;
+    }
+
+    private String classifyIntent(String input) {
+        input = input.toLowerCase();
+        for (String key : intentMap.keySet()) {
+            if (kmpSearch(key, input))
+                return intentMap.get(key);
+        }
+        return "Customer service inquiry";
+    }
+
+    private boolean kmpSearch(String pattern, String text) {
+        if (pattern.length() > text.length())
+            return false;
+
+        int[] lps = computeLPS(pattern);
+        int i = 0, j = 0;
+        while (i < text.length()) {
+            if (pattern.charAt(j) == text.charAt(i)) {
+                i++;
+                j++;
+                if (j == pattern.length())
+                    return true;
+            } else if (j != 0) {
+                j = lps[j - 1];
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    private int[] computeLPS(String pattern) {
+        int[] lps = new int[pattern.length()];
+        int len = 0, i = 1;
+        while (i < pattern.length()) {
+            if (pattern.charAt(i) == pattern.charAt(len)) {
+                len++;
+                lps[i] = len;
+                i++;
+            } else if (len != 0) {
+                len = lps[len - 1];
+            } else {
+                lps[i] = 0;
+                i++;
+            }
+        }
+        return lps;
+    }
+
+    // Enhanced irrelevant detection - STRICT customer service only
+    static boolean isIrrelevant(String input) {
+        String lower = input.toLowerCase();
+
+        // Comprehensive list of forbidden topics
+        String[] unrelated = {
+                // Other AI systems
+                "chatgpt", "deepseek", "gpt", "gemini", "claude", "ai model", "llama",
+                "openai", "anthropic", "google ai", "meta ai", "artificial intelligence",
+
+                // General knowledge
+                "prime minister", "president", "capital", "weather", "sports", "movie",
+                "music", "celebrity", "history", "politics", "religion", "science",
+                "math", "physics", "chemistry", "biology", "astronomy", "geography",
+
+                // Daily life
+                "recipe", "cooking", "travel", "vacation", "holiday", "school",
+                "teacher", "university", "game", "sports", "entertainment",
+
+                // Technology (general)
+                "programming", "coding", "software", "hardware", "computer", "phone",
+                "internet", "website", "app development",
+
+                // Personal
+                "how are you", "your name", "who made you", "who created you",
+                "what can you do", "tell me about yourself",
+
+                // Philosophy and abstract
+                "meaning of life", "philosophy", "opinion", "thoughts on",
+
+                // Time and date
+                "time", "date", "year", "month", "day"
+        };
+
+        for (String w : unrelated) {
+            if (lower.contains(w))
+                return true;
+        }
+
+        // Additional pattern matching for AI-related questions
+        if (lower.matches(".*(what|who|how).*(ai|chatbot|assistant|model).*")) {
+            return true;
+        }
+
+        return false;
+    }
+
+    // Get AI Response from OpenRouter API with STRICT customer service focus
+    private CompletableFuture<String> getAIResponse(String userInput, String intent) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        String model = currentModel;
+
+        new Thread(() -> {
+            try {
+                // STRICT system message - customer service only
+                JSONObject systemMessage = new JSONObject();
+                systemMessage.put("role", "system");
+                systemMessage.put("content", "You are a professional customer service assistant for a company. " +
+                        "STRICTLY follow these rules:\n" +
+                        "1. ONLY answer questions about the company, its products, services, and customer support\n" +
+                        "2. NEVER answer questions about other AI systems, general knowledge, or unrelated topics\n" +
+                        "3. If asked about ChatGPT, DeepSeek, Gemini, or any other AI, politely decline and redirect to company services\n"
+                        +
+                        "4. Keep responses professional, concise, and helpful\n" +
+                        "5. Focus on: order tracking, payments, refunds, account issues, product info, technical support\n"
+                        +
+                        "6. If unsure, ask for clarification about company-related matters only\n\n" +
+                        "Current intent category: " + intent + "\n" +
+                        "User question: " + userInput);
+
+                JSONObject userMessage = new JSONObject();
+                userMessage.put("role", "user");
+                userMessage.put("content", userInput);
+
+                JSONArray messages = new JSONArray();
+                messages.put(systemMessage);
+                messages.put(userMessage);
+
+                JSONObject json = new JSONObject();
+                json.put("model", model);
+                json.put("messages", messages);
+                json.put("max_tokens", 500);
+                json.put("temperature", 0.3);
+                if (stream)
+                    json.put("stream", true);
+
+                RequestBody body = RequestBody.create(
+                        json.toString(),
+                        MediaType.parse("application/json"));
+
+                Request request = new Request.Builder()
+                        .url(apiUrl)
+                        .addHeader("Authorization", "Bearer " + apiKey)
+                        .addHeader("Content-Type", "application/json")
+                        .addHeader("HTTP-Referer", "http://localhost:8080")
+                        .addHeader("X-Title", "Customer Service AI - Professional Support")
+                        .post(body)
+                        .build();
+
+                String reply;
+                try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+                    if (!response.isSuccessful()) {
+                        throw new IOException("API request failed: " + response.code() + " - "
+                                + response.body().string());
+                    }
+
+                    reply = stream ? readStreamedReply(response.body().source()) : readReply(response.body().string());
+                }
+
+                // Remove ** markdown formatting from the response
+                final String cleanReply = reply.replaceAll("\\*\\*", "");
+
+                listener.onMessage("Customer Service: " + cleanReply, MessageType.AI);
+                listener.onStatus("Response received via " + model);
+                result.complete(cleanReply);
+
+            } catch (Exception e) {
+                listener.onMessage("System Error: " + e.getMessage(), MessageType.WARNING);
+                listener.onStatus("Error - please try again");
+                if (logErrors)
+                    e.printStackTrace();
+                result.completeExceptionally(e);
+            }
+        }).start();
+
+        return result;
+    }
+
+    private String readReply(String responseData) {
+        JSONObject jsonResponse = new JSONObject(responseData);
+        return jsonResponse
+                .getJSONArray("choices")
+                .getJSONObject(0)
+                .getJSONObject("message")
+                .getString("content")
+                .trim();
+    }
+
+    // Server-sent events: "data: {chunk}" lines terminated by "data: [DONE]".
+    // Lines starting with ':' are keep-alive comments.
+    private String readStreamedReply(BufferedSource source) throws IOException {
+        StringBuilder reply = new StringBuilder();
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (!line.startsWith("data:"))
+                continue;
+
+            String data = line.substring(5).trim();
+            if (data.equals("[DONE]"))
+                break;
+
+            JSONObject chunk = new JSONObject(data);
+            if (chunk.has("error"))
+                throw new IOException("API stream failed: " + chunk.get("error"));
+
+            JSONObject delta = chunk.getJSONArray("choices").getJSONObject(0).optJSONObject("delta");
+            if (delta != null)
+                reply.append(delta.optString("content", ""));
+        }
+        return reply.toString().trim();
+    }
+
+    static class TrieNode {
+        Map<Character, TrieNode> children = new HashMap<>();
+        boolean isEnd;
+    }
+}
@@ -1,10 +1,6 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
-import java.io.*;
-import java.util.*;
-import okhttp3.*;
-import org.json.*;
 
 /**
  * ConversationalAI_DSA.java
@@ -30,16 +26,8 @@ public class ConversationalAI_DSA extends JFrame {
     private JLabel statusLabel, logoLabel;
     private JPanel topBar;
 
-    // DSA structures
-    private Queue<String> messageQueue = new LinkedList<>();
-    private Stack<String> undoStack = new Stack<>();
-    private HashMap<String, String> intentMap = new HashMap<>();
-    private TrieNode root = new TrieNode();
-
-    // API Configuration
-    private static final String API_URL = "https://openrouter.ai/api/v1/chat/completions";
-    private static String API_KEY = "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";
-    private String CurrentModel = "qwen/qwen3-235b-a22b:free";
+    // Chat pipeline (DSA structures and API configuration live in ChatSession)
+    private final ChatSession session;
 
     // Available models from OpenRouter (Free and Paid)
     private String[] openRouterModels = {
@@ -59,9 +47,34 @@ public class ConversationalAI_DSA extends JFrame {
     private final Color USER_MSG_COLOR = new Color(70, 130, 180); // Steel Blue for user messages
 
     public ConversationalAI_DSA() {
+        session = new ChatSession(new ChatSession.Listener() {
+            public void onMessage(String text, ChatSession.MessageType type) {
+                onSwingThread(() -> {
+                    switch (type) {
+                        case USER:
+                            displayMessage(text, USER_MSG_COLOR, false);
+                            break;
+                        case AI:
+                            displayMessage(text, PRIMARY_COLOR, true);
+                            break;
+                        default:
+                            displayMessage(text, WARNING_COLOR, true);
+                    }
+                });
+            }
+
+            public void onStatus(String status) {
+                onSwingThread(() -> statusLabel.setText(status));
+            }
+        });
         initializeGUI();
-        setupIntents();
-        buildTrie();
+    }
+
+    private static void onSwingThread(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread())
+            task.run();
+        else
+            SwingUtilities.invokeLater(task);
     }
 
     private void initializeGUI() {
@@ -135,16 +148,16 @@ public class ConversationalAI_DSA extends JFrame {
         modelLabel.setForeground(new Color(80, 80, 80));
 
         modelComboBox = new JComboBox<>(openRouterModels);
-        modelComboBox.setSelectedItem(CurrentModel);
+        modelComboBox.setSelectedItem(session.getCurrentModel());
         modelComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         modelComboBox.setBackground(Color.WHITE);
         modelComboBox.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createLineBorder(BORDER_COLOR, 1),
                 new EmptyBorder(6, 10, 6, 10)));
         modelComboBox.addActionListener(e -> {
-            CurrentModel = (String) modelComboBox.getSelectedItem();
-            statusLabel.setText("Model switched to: " + CurrentModel);
-            displayMessage("System: Switched to " + CurrentModel,
+            session.setCurrentModel((String) modelComboBox.getSelectedItem());
+            statusLabel.setText("Model switched to: " + session.getCurrentModel());
+            displayMessage("System: Switched to " + session.getCurrentModel(),
                     new Color(100, 100, 100), true);
         });
 
@@ -333,7 +346,7 @@ public class ConversationalAI_DSA extends JFrame {
                 "• Service availability and pricing\n" +
                 "• Shipping and delivery questions\n" +
                 "• Warranty and claim processing\n\n" +
-                "Current AI Model: " + CurrentModel + "\n\n" +
+                "Current AI Model: " + session.getCurrentModel() + "\n\n" +
                 "How may I assist you with our services today?";
 
         displayMessage(welcomeMsg, PRIMARY_COLOR, true);
@@ -345,34 +358,13 @@ public class ConversationalAI_DSA extends JFrame {
         if (userInput.isEmpty())
             return;
 
-        displayMessage("You: " + userInput, USER_MSG_COLOR, false);
         inputField.setText("");
-        messageQueue.add(userInput);
-        undoStack.push(userInput);
-
-        // Update status
-        statusLabel.setText("Processing your customer service request using " + CurrentModel + "...");
-
-        if (isIrrelevant(userInput)) {
-            String rejectionMsg = "Customer Service Focus\n\n" +
-                    "I specialize exclusively in company-related customer support. " +
-                    "I cannot answer general questions, provide information about other AI systems, " +
-                    "or discuss topics outside our business services.\n\n" +
-                    "Please ask about our company, products, services, or customer support " +
-                    "and I'll be happy to assist you!";
-
-            displayMessage(rejectionMsg, WARNING_COLOR, true);
-            statusLabel.setText("Question redirected to customer service topics");
-            return;
-        }
-
-        String intent = classifyIntent(userInput);
-        getAIResponse(userInput, intent);
+        session.handleSend(userInput);
     }
 
     private void handleUndo() {
-        if (!undoStack.isEmpty()) {
-            String last = undoStack.pop();
+        String last = session.undo();
+        if (last != null) {
             displayMessage("System: Last message undone: \"" + last + "\"",
                     new Color(120, 120, 120), true);
             statusLabel.setText("Last message undone");
@@ -388,223 +380,6 @@ public class ConversationalAI_DSA extends JFrame {
         statusLabel.setText("Chat cleared - Ready for customer service inquiries");
     }
 
-    // Enhanced DSA logic implementations
-    private void setupIntents() {
-        intentMap.put("refund", "Refund request");
-        intentMap.put("payment", "Payment issue");
-        intentMap.put("order", "Order tracking");
-        intentMap.put("cancel", "Cancellation");
-        intentMap.put("login", "Account issue");
-        intentMap.put("price", "Pricing inquiry");
-        intentMap.put("help", "General support");
-        intentMap.put("service", "Service information");
-        intentMap.put("company", "Company details");
-        intentMap.put("product", "Product information");
-        intentMap.put("shipping", "Shipping inquiry");
-        intentMap.put("return", "Return policy");
-        intentMap.put("warranty", "Warranty information");
-        intentMap.put("technical", "Technical support");
-        intentMap.put("billing", "Billing inquiry");
-        intentMap.put("account", "Account management");
-        intentMap.put("support", "Customer support");
-        intentMap.put("delivery", "Delivery status");
-        intentMap.put("policy", "Company policy");
-        intentMap.put("track", "Order tracking");
-        intentMap.put("complaint", "Customer complaint");
-    }
-
-    private void buildTrie() {
-        for (String word : intentMap.keySet()) {
-            insertTrie(word);
-        }
-    }
-
-    private void insertTrie(String word) {
-        TrieNode node = root;
-        for (char c : word.toCharArray()) {
-            node.children.putIfAbsent(c, new TrieNode());
-            node = node.children.get(c);
-        }
-        node.isEnd = true;
-    }
-
-    private String classifyIntent(String input) {
-        input = input.toLowerCase();
-        for (String key : intentMap.keySet()) {
-            if (kmpSearch(key, input))
-                return intentMap.get(key);
-        }
-        return "Customer service inquiry";
-    }
-
-    private boolean kmpSearch(String pattern, String text) {
-        if (pattern.length() > text.length())
-            return false;
-
-        int[] lps = computeLPS(pattern);
-        int i = 0, j = 0;
-        while (i < text.length()) {
-            if (pattern.charAt(j) == text.charAt(i)) {
-                i++;
-                j++;
-                if (j == pattern.length())
-                    return true;
-            } else if (j != 0) {
-                j = lps[j - 1];
-            } else {
-                i++;
-            }
-        }
-        return false;
-    }
-
-    private int[] computeLPS(String pattern) {
-        int[] lps = new int[pattern.length()];
-        int len = 0, i = 1;
-        while (i < pattern.length()) {
-            if (pattern.charAt(i) == pattern.charAt(len)) {
-                len++;
-                lps[i] = len;
-                i++;
-            } else if (len != 0) {
-                len = lps[len - 1];
-            } else {
-                lps[i] = 0;
-                i++;
-            }
-        }
-        return lps;
-    }
-
-    // Enhanced irrelevant detection - STRICT customer service only
-    private boolean isIrrelevant(String input) {
-        String lower = input.toLowerCase();
-
-        // Comprehensive list of forbidden topics
-        String[] unrelated = {
-                // Other AI systems
-                "chatgpt", "deepseek", "gpt", "gemini", "claude", "ai model", "llama",
-                "openai", "anthropic", "google ai", "meta ai", "artificial intelligence",
-
-                // General knowledge
-                "prime minister", "president", "capital", "weather", "sports", "movie",
-                "music", "celebrity", "history", "politics", "religion", "science",
-                "math", "physics", "chemistry", "biology", "astronomy", "geography",
-
-                // Daily life
-                "recipe", "cooking", "travel", "vacation", "holiday", "school",
-                "teacher", "university", "game", "sports", "entertainment",
-
-                // Technology (general)
-                "programming", "coding", "software", "hardware", "computer", "phone",
-                "internet", "website", "app development",
-
-                // Personal
-                "how are you", "your name", "who made you", "who created you",
-                "what can you do", "tell me about yourself",
-
-                // Philosophy and abstract
-                "meaning of life", "philosophy", "opinion", "thoughts on",
-
-                // Time and date
-                "time", "date", "year", "month", "day"
-        };
-
-        for (String w : unrelated) {
-            if (lower.contains(w))
-                return true;
-        }
-
-        // Additional pattern matching for AI-related questions
-        if (lower.matches(".*(what|who|how).*(ai|chatbot|assistant|model).*")) {
-            return true;
-        }
-
-        return false;
-    }
-
-    // Get AI Response from OpenRouter API with STRICT customer service focus
-    private void getAIResponse(String userInput, String intent) {
-        new Thread(() -> {
-            try {
-                OkHttpClient client = new OkHttpClient();
-
-                // STRICT system message - customer service only
-                JSONObject systemMessage = new JSONObject();
-                systemMessage.put("role", "system");
-                systemMessage.put("content", "You are a professional customer service assistant for a company. " +
-                        "STRICTLY follow these rules:\n" +
-                        "1. ONLY answer questions about the company, its products, services, and customer support\n" +
-                        "2. NEVER answer questions about other AI systems, general knowledge, or unrelated topics\n" +
-                        "3. If asked about ChatGPT, DeepSeek, Gemini, or any other AI, politely decline and redirect to company services\n"
-                        +
-                        "4. Keep responses professional, concise, and helpful\n" +
-                        "5. Focus on: order tracking, payments, refunds, account issues, product info, technical support\n"
-                        +
-                        "6. If unsure, ask for clarification about company-related matters only\n\n" +
-                        "Current intent category: " + intent + "\n" +
-                        "User question: " + userInput);
-
-                JSONObject userMessage = new JSONObject();
-                userMessage.put("role", "user");
-                userMessage.put("content", userInput);
-
-                JSONArray messages = new JSONArray();
-                messages.put(systemMessage);
-                messages.put(userMessage);
-
-                JSONObject json = new JSONObject();
-                json.put("model", CurrentModel);
-                json.put("messages", messages);
-                json.put("max_tokens", 500);
-                json.put("temperature", 0.3);
-
-                RequestBody body = RequestBody.create(
-                        json.toString(),
-                        MediaType.parse("application/json"));
-
-                Request request = new Request.Builder()
-                        .url(API_URL)
-                        .addHeader("Authorization", "Bearer " + API_KEY)
-                        .addHeader("Content-Type", "application/json")
-                        .addHeader("HTTP-Referer", "http://localhost:8080")
-                        .addHeader("X-Title", "Customer Service AI - Professional Support")
-                        .post(body)
-                        .build();
-
-                Response response = client.newCall(request).execute();
-                String responseData = response.body().string();
-
-                if (!response.isSuccessful()) {
-                    throw new IOException("API request failed: " + response.code() + " - " + responseData);
-                }
-
-                JSONObject jsonResponse = new JSONObject(responseData);
-                String reply = jsonResponse
-                        .getJSONArray("choices")
-                        .getJSONObject(0)
-                        .getJSONObject("message")
-                        .getString("content")
-                        .trim();
-
-                // Remove ** markdown formatting from the response
-                final String cleanReply = reply.replaceAll("\\*\\*", "");
-
-                SwingUtilities.invokeLater(() -> {
-                    displayMessage("Customer Service: " + cleanReply, PRIMARY_COLOR, true);
-                    statusLabel.setText("Response received via " + CurrentModel);
-                });
-
-            } catch (Exception e) {
-                SwingUtilities.invokeLater(() -> {
-                    displayMessage("System Error: " + e.getMessage(), WARNING_COLOR, true);
-                    statusLabel.setText("Error - please try again");
-                });
-                e.printStackTrace();
-            }
-        }).start();
-    }
-
     private void displayMessage(String msg, Color color, boolean isAI) {
         // Create styled message
         if (isAI) {
@@ -621,11 +396,6 @@ public class ConversationalAI_DSA extends JFrame {
         chatArea.setCaretPosition(chatArea.getDocument().getLength());
     }
 
-    static class TrieNode {
-        Map<Character, TrieNode> children = new HashMap<>();
-        boolean isEnd;
-    }
-
     public static void main(String[] args) {
         // Set modern look and feel
         try {
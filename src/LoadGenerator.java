@@ -0,0 +1,239 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadGenerator.java
+ * ------------------
+ * Open-loop load generator for the chat pipeline. Drives ChatSession.handleSend
+ * through a pool of headless sessions at a fixed arrival rate, against either
+ * an embedded OpenRouterSimulator (default) or any URL given with --url.
+ *
+ * Arrivals are scheduled up front from the seed, and never wait for earlier
+ * requests to finish. Latency is measured from each request's intended start
+ * time, so stalls in the client are counted instead of hidden (coordinated
+ * omission correction). Service time from the actual dispatch is reported
+ * alongside for comparison.
+ *
+ * Usage:
+ * java -cp "out:lib/*" LoadGenerator --rate 50 --duration 30 --sessions 16
+ * [--arrivals poisson|constant] [--warmup 5] [--seed 42] [--stream]
+ * [--url URL] [--latency lognormal:300:0.5] [--error-rate 0.01]
+ * [--error-status 500] [--chunk-delay-ms 10]
+ */
+
+public class LoadGenerator {
+
+    // Customer service prompts that pass the relevance filter, so every
+    // request reaches the API
+    private static final String[] PROMPTS = {
+            "I need a refund for my order",
+            "My payment was declined at checkout",
+            "Please track my delivery",
+            "I cannot login to my account",
+            "I want to cancel my subscription",
+            "Is there a warranty on this product",
+            "I was charged twice on my billing statement",
+            "Where is my shipping confirmation",
+            "I have a complaint about the support I received",
+            "Explain your return policy"
+    };
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = OpenRouterSimulator.parseOptions(args);
+        double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        double durationSec = Double.parseDouble(options.getOrDefault("duration", "30"));
+        double warmupSec = Double.parseDouble(options.getOrDefault("warmup", "0"));
+        int sessionCount = Integer.parseInt(options.getOrDefault("sessions", "8"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String arrivals = options.getOrDefault("arrivals", "poisson");
+        boolean stream = Boolean.parseBoolean(options.getOrDefault("stream", "false"));
+
+        if (rate <= 0 || durationSec <= 0 || sessionCount <= 0)
+            throw new IllegalArgumentException("--rate, --duration and --sessions must be positive");
+        if (warmupSec < 0 || warmupSec >= durationSec)
+            throw new IllegalArgumentException("--warmup must be shorter than --duration");
+        for (String prompt : PROMPTS) {
+            if (ChatSession.isIrrelevant(prompt))
+                throw new IllegalStateException("Prompt would be rejected locally: " + prompt);
+        }
+
+        OpenRouterSimulator simulator = null;
+        String url = options.get("url");
+        if (url == null) {
+            simulator = OpenRouterSimulator.fromOptions(options, 0);
+            simulator.start();
+            url = simulator.getUrl();
+        }
+
+        try {
+            long[] schedule = schedule(arrivals, rate, durationSec, seed);
+            System.out.printf("Target %s, %d sessions, %s arrivals at %.1f req/s for %.1f s (%d requests)%n",
+                    url, sessionCount, arrivals, rate, durationSec, schedule.length);
+
+            ChatSession[] sessions = new ChatSession[sessionCount];
+            for (int i = 0; i < sessionCount; i++) {
+                sessions[i] = new ChatSession(url, ChatSession.resolveApiKey(), stream, new ChatSession.Listener() {
+                    public void onMessage(String text, ChatSession.MessageType type) {
+                    }
+
+                    public void onStatus(String status) {
+                    }
+                });
+                sessions[i].setLogErrors(false);
+            }
+
+            run(schedule, sessions, durationSec, (long) (warmupSec * 1e9));
+        } finally {
+            if (simulator != null) {
+                System.out.printf("Simulator: %d requests, %d injected errors%n",
+                        simulator.getRequestCount(), simulator.getInjectedErrorCount());
+                simulator.stop();
+            }
+        }
+        // Session worker threads may still be blocked on a timed-out call
+        System.exit(0);
+    }
+
+    // Intended start offsets in nanoseconds from the beginning of the run
+    static long[] schedule(String arrivals, double rate, double durationSec, long seed) {
+        Random random = new Random(seed);
+        long durationNanos = (long) (durationSec * 1e9);
+        double meanGapNanos = 1e9 / rate;
+        List<Long> offsets = new ArrayList<>();
+
+        double t = 0;
+        while (true) {
+            if (arrivals.equals("poisson"))
+                t += -meanGapNanos * Math.log(1 - random.nextDouble());
+            else if (arrivals.equals("constant"))
+                t = offsets.size() * meanGapNanos;
+            else
+                throw new IllegalArgumentException("Unknown arrival process: " + arrivals);
+
+            if (t >= durationNanos)
+                break;
+            offsets.add((long) t);
+        }
+
+        long[] schedule = new long[offsets.size()];
+        for (int i = 0; i < schedule.length; i++)
+            schedule[i] = offsets.get(i);
+        return schedule;
+    }
+
+    private static void run(long[] schedule, ChatSession[] sessions, double durationSec, long warmupNanos)
+            throws Exception {
+        int n = schedule.length;
+        long[] intended = new long[n];
+        long[] dispatched = new long[n];
+        long[] completed = new long[n];
+        boolean[] failed = new boolean[n];
+        List<CompletableFuture<?>> pending = new ArrayList<>(n);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            intended[i] = start + schedule[i];
+            long wait;
+            while ((wait = intended[i] - System.nanoTime()) > 0)
+                LockSupport.parkNanos(wait);
+
+            final int id = i;
+            String prompt = PROMPTS[i % PROMPTS.length] + " (ref " + i + ")";
+            dispatched[i] = System.nanoTime();
+            pending.add(sessions[i % sessions.length].handleSend(prompt).handle((reply, error) -> {
+                completed[id] = System.nanoTime();
+                failed[id] = error != null;
+                return null;
+            }));
+        }
+
+        // Give stragglers time to finish; anything still running counts as failed
+        CompletableFuture<Void> all = CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+        boolean drained = true;
+        try {
+            all.get((long) Math.max(60, durationSec), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            drained = false;
+        }
+
+        report(pending, intended, dispatched, completed, failed, start + warmupNanos, drained);
+    }
+
+    private static void report(List<CompletableFuture<?>> pending, long[] intended, long[] dispatched,
+            long[] completed, boolean[] failed, long measureFrom, boolean drained) {
+        long[] corrected = new long[intended.length];
+        long[] service = new long[intended.length];
+        int ok = 0, errors = 0, unfinished = 0;
+        long firstIntended = Long.MAX_VALUE, lastCompleted = Long.MIN_VALUE;
+
+        for (int i = 0; i < intended.length; i++) {
+            if (intended[i] < measureFrom)
+                continue;
+            // Only read results published through a completed future
+            if (!pending.get(i).isDone()) {
+                unfinished++;
+                continue;
+            }
+            firstIntended = Math.min(firstIntended, intended[i]);
+            lastCompleted = Math.max(lastCompleted, completed[i]);
+            if (failed[i]) {
+                errors++;
+                continue;
+            }
+            corrected[ok] = completed[i] - intended[i];
+            service[ok] = completed[i] - dispatched[i];
+            ok++;
+        }
+
+        int measured = ok + errors + unfinished;
+        double windowSec = ok + errors == 0 ? 0 : (lastCompleted - firstIntended) / 1e9;
+        System.out.println();
+        System.out.printf("Measured requests: %d (ok %d, errors %d, unfinished %d)%s%n",
+                measured, ok, errors, unfinished, drained ? "" : " - drain timed out");
+        if (windowSec > 0) {
+            System.out.printf("Throughput: %.2f req/s ok, %.2f req/s total over %.2f s%n",
+                    ok / windowSec, (ok + errors) / windowSec, windowSec);
+        }
+        if (measured > 0)
+            System.out.printf("Error rate: %.2f%%%n", 100.0 * (errors + unfinished) / measured);
+        if (ok == 0)
+            return;
+
+        corrected = Arrays.copyOf(corrected, ok);
+        service = Arrays.copyOf(service, ok);
+        Arrays.sort(corrected);
+        Arrays.sort(service);
+
+        System.out.println();
+        System.out.printf("%-10s %14s %14s%n", "Latency", "corrected ms", "service ms");
+        System.out.printf("%-10s %14.1f %14.1f%n", "mean", mean(corrected) / 1e6, mean(service) / 1e6);
+        for (double p : PERCENTILES) {
+            System.out.printf("%-10s %14.1f %14.1f%n", "p" + formatPercentile(p),
+                    percentile(corrected, p) / 1e6, percentile(service, p) / 1e6);
+        }
+        System.out.printf("%-10s %14.1f %14.1f%n", "max",
+                corrected[ok - 1] / 1e6, service[ok - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile of a sorted array
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long v : values)
+            sum += v;
+        return sum / values.length;
+    }
+
+    private static String formatPercentile(double p) {
+        return p == Math.floor(p) ? String.valueOf((long) p) : String.valueOf(p);
+    }
+}
@@ -0,0 +1,332 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.*;
+
+/**
+ * OpenRouterSimulator.java
+ * ------------------------
+ * Local stand-in for the OpenRouter chat-completions endpoint, used to
+ * load-test the chat pipeline without touching the real API.
+ *
+ * Features:
+ * - Configurable latency distribution (fixed, uniform, exponential, lognormal)
+ * - Error injection with a configurable rate and HTTP status
+ * - Streaming (server-sent events) when the request sets "stream": true
+ * - Deterministic: every random draw for a request is seeded from the
+ * simulator seed and the request body, so the same request always gets the
+ * same latency, outcome and reply regardless of arrival order
+ *
+ * Usage:
+ * java -cp "out:lib/*" OpenRouterSimulator --port 8089 --latency lognormal:400:0.6
+ * --error-rate 0.02 --error-status 503 --chunk-delay-ms 15 --seed 42
+ */
+
+public class OpenRouterSimulator {
+
+    public static final String PATH = "/api/v1/chat/completions";
+
+    // Canned replies, one per simulated completion
+    private static final String[] REPLIES = {
+            "Thank you for reaching out. I have located your request and our team will follow up by email shortly.",
+            "I understand the inconvenience. Please share your order number so I can check the current status for you.",
+            "Refunds are processed to the original payment method within 5 to 7 business days of approval.",
+            "For account access issues, please use the password reset link on the login page and try again.",
+            "Our standard warranty covers manufacturing defects for twelve months from the delivery of the product."
+    };
+
+    private final int port;
+    private final Latency latency;
+    private final double errorRate;
+    private final int errorStatus;
+    private final long chunkDelayMs;
+    private final long seed;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public OpenRouterSimulator(int port, Latency latency, double errorRate, int errorStatus,
+            long chunkDelayMs, long seed) {
+        if (errorRate < 0 || errorRate > 1)
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+        this.port = port;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.chunkDelayMs = chunkDelayMs;
+        this.seed = seed;
+    }
+
+    public synchronized void start() throws IOException {
+        // Headers and body go out as separate writes; without TCP_NODELAY the
+        // Nagle / delayed-ACK interaction adds ~40 ms to every response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // Handlers sleep to simulate latency, so each request needs its own thread
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "openrouter-simulator");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendJson(exchange, 405, errorBody(405, "Method not allowed"));
+                return;
+            }
+
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            JSONObject request;
+            try {
+                request = new JSONObject(body);
+            } catch (JSONException e) {
+                sendJson(exchange, 400, errorBody(400, "Invalid JSON: " + e.getMessage()));
+                return;
+            }
+
+            Random random = new Random(seed * 0x9E3779B97F4A7C15L + body.hashCode());
+            sleep(latency.sample(random));
+
+            if (random.nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                sendJson(exchange, errorStatus, errorBody(errorStatus, "Simulated upstream error"));
+                return;
+            }
+
+            String model = request.optString("model", ChatSession.DEFAULT_MODEL);
+            String reply = REPLIES[random.nextInt(REPLIES.length)];
+            String id = "gen-sim-" + Long.toHexString(random.nextLong() & Long.MAX_VALUE);
+
+            if (request.optBoolean("stream", false))
+                sendStream(exchange, id, model, reply);
+            else
+                sendJson(exchange, 200, completion(id, model, reply));
+        }
+    }
+
+    private JSONObject completion(String id, String model, String reply) {
+        JSONObject message = new JSONObject();
+        message.put("role", "assistant");
+        message.put("content", reply);
+
+        JSONObject choice = new JSONObject();
+        choice.put("index", 0);
+        choice.put("message", message);
+        choice.put("finish_reason", "stop");
+
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("object", "chat.completion");
+        json.put("created", 0);
+        json.put("model", model);
+        json.put("choices", new JSONArray().put(choice));
+        return json;
+    }
+
+    // One word per chunk, chunkDelayMs apart, then "data: [DONE]"
+    private void sendStream(HttpExchange exchange, String id, String model, String reply) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream out = exchange.getResponseBody();
+        String[] words = reply.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0)
+                sleep(chunkDelayMs);
+
+            JSONObject delta = new JSONObject();
+            delta.put("content", i == 0 ? words[i] : " " + words[i]);
+
+            JSONObject choice = new JSONObject();
+            choice.put("index", 0);
+            choice.put("delta", delta);
+            choice.put("finish_reason", i == words.length - 1 ? "stop" : JSONObject.NULL);
+
+            JSONObject chunk = new JSONObject();
+            chunk.put("id", id);
+            chunk.put("object", "chat.completion.chunk");
+            chunk.put("created", 0);
+            chunk.put("model", model);
+            chunk.put("choices", new JSONArray().put(choice));
+
+            writeEvent(out, chunk.toString());
+        }
+        writeEvent(out, "[DONE]");
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static JSONObject errorBody(int code, String message) {
+        JSONObject error = new JSONObject();
+        error.put("code", code);
+        error.put("message", message);
+        return new JSONObject().put("error", error);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, JSONObject json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0)
+            return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Latency distribution in milliseconds, parsed from specs such as
+     * "fixed:200", "uniform:100:600", "exponential:250" or
+     * "lognormal:300:0.5" (median and sigma).
+     */
+    public static class Latency {
+        private final String kind;
+        private final double a, b;
+
+        private Latency(String kind, double a, double b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        public static Latency parse(String spec) {
+            String[] parts = spec.trim().toLowerCase().split(":");
+            try {
+                switch (parts[0]) {
+                    case "fixed":
+                        if (parts.length == 2)
+                            return new Latency("fixed", Double.parseDouble(parts[1]), 0);
+                        break;
+                    case "uniform":
+                        if (parts.length == 3)
+                            return new Latency("uniform", Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                        break;
+                    case "exponential":
+                        if (parts.length == 2)
+                            return new Latency("exponential", Double.parseDouble(parts[1]), 0);
+                        break;
+                    case "lognormal":
+                        if (parts.length == 3)
+                            return new Latency("lognormal", Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+            throw new IllegalArgumentException("Invalid latency spec: " + spec
+                    + " (expected fixed:MS, uniform:MIN:MAX, exponential:MEAN or lognormal:MEDIAN:SIGMA)");
+        }
+
+        public long sample(Random random) {
+            double millis;
+            switch (kind) {
+                case "uniform":
+                    millis = a + random.nextDouble() * (b - a);
+                    break;
+                case "exponential":
+                    millis = -a * Math.log(1 - random.nextDouble());
+                    break;
+                case "lognormal":
+                    millis = a * Math.exp(b * random.nextGaussian());
+                    break;
+                default:
+                    millis = a;
+            }
+            return Math.max(0, Math.round(millis));
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case "fixed":
+                case "exponential":
+                    return kind + ":" + a;
+                default:
+                    return kind + ":" + a + ":" + b;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        OpenRouterSimulator simulator = fromOptions(options, Integer.parseInt(options.getOrDefault("port", "8089")));
+        simulator.start();
+
+        System.out.println("OpenRouter simulator listening on " + simulator.getUrl());
+        System.out.println("Latency " + simulator.latency + " ms, error rate " + simulator.errorRate
+                + " (HTTP " + simulator.errorStatus + "), seed " + simulator.seed);
+        System.out.println("Point the chatbot at it with -Dopenrouter.api.url=" + simulator.getUrl());
+    }
+
+    static OpenRouterSimulator fromOptions(Map<String, String> options, int port) {
+        return new OpenRouterSimulator(
+                port,
+                Latency.parse(options.getOrDefault("latency", "lognormal:300:0.5")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                Integer.parseInt(options.getOrDefault("error-status", "500")),
+                Long.parseLong(options.getOrDefault("chunk-delay-ms", "10")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+    }
+
+    // "--name value" pairs; a flag with no value maps to "true"
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--"))
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--"))
+                options.put(name, args[++i]);
+            else
+                options.put(name, "true");
+        }
+        return options;
+    }
+}